@@ -2,11 +2,9 @@ package fr.edu.lyon.pdfmerge.pdf.services;
 
 import java.awt.Dimension;
 import java.awt.geom.AffineTransform;
-import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -14,7 +12,6 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 
-import javax.imageio.ImageIO;
 import javax.xml.transform.TransformerException;
 
 import org.apache.pdfbox.cos.COSStream;
@@ -44,80 +41,80 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 public class PdfService {
 
-	public List<InputStream> normalizeSources(final List<File> sources) {
-		Tika tika = new Tika();
-		List<InputStream> dest = new ArrayList<InputStream>();
-		for (File file : sources) {
-			try {
-				String mimeType = "";
-				mimeType = tika.detect(file);
-				if (mimeType.equals("application/pdf")) {
-					dest.add(new FileInputStream(file));
-				} else {
-					dest.add(createPDFFromImage(file));
-				}
-			} catch (IOException e) {
-				log.error("io error", e);
-			}
-		}
-
-		return dest;
-	}
-
 	/**
-	 * Creates a compound PDF document from a list of input documents.
+	 * Creates a compound PDF document from a list of source files.
+	 * <p>
+	 * PDF sources are appended to the destination document, image sources are
+	 * drawn directly onto a new page of the destination document, so they are
+	 * never serialized to an intermediate PDF and parsed again. Sources whose
+	 * type cannot be detected and images that cannot be read are logged and
+	 * skipped, errors on PDF sources fail the whole merge.
 	 * <p>
 	 * The merged document is PDF/A-1b compliant, provided the source documents are
 	 * as well. It contains document properties title, creator and subject,
 	 * currently hard-coded.
 	 *
-	 * @param sources list of source PDF document streams.
+	 * @param sources list of source PDF or image files.
 	 * @return compound PDF document as a readable input stream.
 	 * @throws IOException   if anything goes wrong during PDF merge.
 	 * @throws TikaException
 	 */
-	public InputStream merge(final List<InputStream> sources) throws IOException, TikaException {
+	public InputStream merge(final List<File> sources) throws IOException, TikaException {
 
 		String title = "Merged PDF";
 		String creator = "AC Lyon";
 		String subject = "Subject";
 
+		Tika tika = new Tika();
+		PDFMergerUtility pdfMerger = new PDFMergerUtility();
+		// source documents must stay open until the destination is saved, as their
+		// resources are shared with the destination pages
+		List<PDDocument> openedSources = new ArrayList<PDDocument>();
+
 		try (COSStream cosStream = new COSStream();
+				PDDocument destination = new PDDocument(MemoryUsageSetting.setupMainMemoryOnly());
 				ByteArrayOutputStream mergedPDFOutputStream = new ByteArrayOutputStream()) {
-			// If you're merging in a servlet, you can modify this example to use the
-			// outputStream only
-			// as the response as shown here: http://stackoverflow.com/a/36894346/535646
 
-			PDFMergerUtility pdfMerger = createPDFMergerUtility(sources, mergedPDFOutputStream);
+			log.info("Merging " + sources.size() + " source documents into one PDF");
+			for (File file : sources) {
+				String mimeType = "";
+				try {
+					mimeType = tika.detect(file);
+				} catch (IOException e) {
+					log.error("io error", e);
+					continue;
+				}
+				if (mimeType.equals("application/pdf")) {
+					PDDocument source = PDDocument.load(file, MemoryUsageSetting.setupMainMemoryOnly());
+					openedSources.add(source);
+					pdfMerger.appendDocument(destination, source);
+				} else {
+					try {
+						addImagePage(destination, file);
+					} catch (IOException e) {
+						log.error("io error", e);
+					}
+				}
+			}
 
 			// PDF and XMP properties must be identical, otherwise document is not PDF/A
 			// compliant
 			PDDocumentInformation pdfDocumentInfo = createPDFDocumentInfo(title, creator, subject);
 			PDMetadata xmpMetadata = createXMPMetadata(cosStream, title, creator, subject);
-			pdfMerger.setDestinationDocumentInformation(pdfDocumentInfo);
-			pdfMerger.setDestinationMetadata(xmpMetadata);
+			destination.setDocumentInformation(pdfDocumentInfo);
+			destination.getDocumentCatalog().setMetadata(xmpMetadata);
 
-			log.info("Merging " + sources.size() + " source documents into one PDF");
-			pdfMerger.mergeDocuments(MemoryUsageSetting.setupMainMemoryOnly());
+			destination.save(mergedPDFOutputStream);
 			log.info("PDF merge successful, size = {" + mergedPDFOutputStream.size() + "} bytes");
 
 			return new ByteArrayInputStream(mergedPDFOutputStream.toByteArray());
 		} catch (BadFieldValueException | TransformerException e) {
 			throw new IOException("PDF merge problem", e);
 		} finally {
-			sources.forEach(org.apache.pdfbox.io.IOUtils::closeQuietly);
+			openedSources.forEach(org.apache.pdfbox.io.IOUtils::closeQuietly);
 		}
 	}
 
-	private PDFMergerUtility createPDFMergerUtility(List<InputStream> sources,
-			ByteArrayOutputStream mergedPDFOutputStream) {
-		log.info("Initialising PDF merge utility");
-		PDFMergerUtility pdfMerger = new PDFMergerUtility();
-		pdfMerger.addSources(sources);
-		pdfMerger.setDestinationStream(mergedPDFOutputStream);
-		return pdfMerger;
-	}
-
 	private PDDocumentInformation createPDFDocumentInfo(String title, String creator, String subject) {
 		log.info("Setting document info (title, author, subject) for merged PDF");
 		PDDocumentInformation documentInformation = new PDDocumentInformation();
@@ -160,13 +157,21 @@ public class PdfService {
 		}
 	}
 
-	public InputStream createPDFFromImage(File image) throws IOException {
-		BufferedImage awtImage = ImageIO.read(image);
-		
-		
+	/**
+	 * Adds an image as a new A4 page of the given document, scaled to fit the page
+	 * and rotated when the image is wider than high.
+	 *
+	 * @param doc   destination document.
+	 * @param image source image file.
+	 * @throws IOException if the image cannot be read.
+	 */
+	public void addImagePage(PDDocument doc, File image) throws IOException {
+		// decode the image once, straight into the destination document
+		PDImageXObject pdImage = PDImageXObject.createFromFileByContent(image, doc);
+
 		// check if horizontal or vertical
 		Boolean isHorizontal = false;
-		if (awtImage.getWidth() > awtImage.getHeight()) {
+		if (pdImage.getWidth() > pdImage.getHeight()) {
 			isHorizontal = true;
 		}
 
@@ -196,38 +201,31 @@ public class PdfService {
 			actualPDFHeight = (int) PDRectangle.A4.getHeight();
 		}
 
-		PDDocument doc = new PDDocument();
-		doc.addPage(new PDPage());
-		PDPage page = doc.getPage(0);
-		PDImageXObject pdImage = PDImageXObject.createFromFileByContent(image, doc);
-
-		PDPageContentStream contentStream = new PDPageContentStream(doc, page);
+		PDPage page = new PDPage();
 
 		// scale image
 		Dimension scaledDim = getScaledDimension(new Dimension(pdImage.getWidth(), pdImage.getHeight()),
 				new Dimension(actualPDFWidth, actualPDFHeight)); // I'm using this function:
 																	// https://stackoverflow.com/questions/23223716/scaled-image-blurry-in-pdfbox
 
-		// if horizontal rotate 90°, calculate position and draw on page
-		if (isHorizontal) {
-			int x = (int) PDRectangle.A4.getWidth() - (((int) PDRectangle.A4.getWidth() - scaledDim.height) / 2);
-			int y = ((int) PDRectangle.A4.getHeight() - scaledDim.width) / 2;
-			AffineTransform at = new AffineTransform(scaledDim.getHeight(), 0, 0, scaledDim.getWidth(), x, y);
-			at.rotate(Math.toRadians(90));
-			Matrix m = new Matrix(at);
-			contentStream.drawImage(pdImage, m);
-		} else {
-			int x = ((int) PDRectangle.A4.getWidth() - scaledDim.width) / 2;
-			int y = ((int) PDRectangle.A4.getHeight() - scaledDim.height) / 2;
-			contentStream.drawImage(pdImage, x, y, scaledDim.width, scaledDim.height);
+		try (PDPageContentStream contentStream = new PDPageContentStream(doc, page)) {
+			// if horizontal rotate 90°, calculate position and draw on page
+			if (isHorizontal) {
+				int x = (int) PDRectangle.A4.getWidth() - (((int) PDRectangle.A4.getWidth() - scaledDim.height) / 2);
+				int y = ((int) PDRectangle.A4.getHeight() - scaledDim.width) / 2;
+				AffineTransform at = new AffineTransform(scaledDim.getHeight(), 0, 0, scaledDim.getWidth(), x, y);
+				at.rotate(Math.toRadians(90));
+				Matrix m = new Matrix(at);
+				contentStream.drawImage(pdImage, m);
+			} else {
+				int x = ((int) PDRectangle.A4.getWidth() - scaledDim.width) / 2;
+				int y = ((int) PDRectangle.A4.getHeight() - scaledDim.height) / 2;
+				contentStream.drawImage(pdImage, x, y, scaledDim.width, scaledDim.height);
+			}
 		}
 
-		contentStream.close();
-		ByteArrayOutputStream out = new ByteArrayOutputStream();
-		doc.save(out);
-		doc.close();
-		ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
-		return in;		
+		// only add the page once it is fully drawn
+		doc.addPage(page);
 	}
 
 	public static Dimension getScaledDimension(Dimension imgSize, Dimension boundary) {
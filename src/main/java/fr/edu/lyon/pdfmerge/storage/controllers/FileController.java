@@ -64,7 +64,7 @@ public class FileController {
 
 		String filename = "output.pdf";
 
-		InputStream mergedPdf = pdfService.merge(pdfService.normalizeSources(items));
+		InputStream mergedPdf = pdfService.merge(items);
 		InputStreamResource resource = new InputStreamResource(mergedPdf);
 		storage.destroy();
 
@@ -103,7 +103,7 @@ public class FileController {
 			items.add(storage.storeFileDescription(fd));			
 		}
 		
-		InputStream mergedPdf = pdfService.merge(pdfService.normalizeSources(items));
+		InputStream mergedPdf = pdfService.merge(items);
 		InputStreamResource resource = new InputStreamResource(mergedPdf);
 		storage.destroy();
 
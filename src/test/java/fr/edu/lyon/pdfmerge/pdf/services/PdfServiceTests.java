@@ -0,0 +1,173 @@
+package fr.edu.lyon.pdfmerge.pdf.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.apache.pdfbox.contentstream.PDFStreamEngine;
+import org.apache.pdfbox.contentstream.operator.Operator;
+import org.apache.pdfbox.contentstream.operator.state.Concatenate;
+import org.apache.pdfbox.contentstream.operator.state.Restore;
+import org.apache.pdfbox.contentstream.operator.state.Save;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDMetadata;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.util.Matrix;
+import org.apache.xmpbox.XMPMetadata;
+import org.apache.xmpbox.schema.DublinCoreSchema;
+import org.apache.xmpbox.xml.DomXmpParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PdfServiceTests {
+
+	private static final double DELTA = 0.01;
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void mergePdfAndImages() throws Exception {
+		File pdf = createPdf("source.pdf");
+		File portrait = createImage("portrait.png", 40, 80);
+		File landscape = createImage("landscape.png", 120, 60);
+
+		PdfService pdfService = new PdfService();
+		try (InputStream merged = pdfService.merge(Arrays.asList(pdf, portrait, landscape));
+				PDDocument doc = PDDocument.load(merged)) {
+			assertEquals(3, doc.getNumberOfPages());
+
+			// source PDF page first, then images in the order given
+			PDRectangle firstPage = doc.getPage(0).getMediaBox();
+			assertEquals(PDRectangle.A5.getWidth(), firstPage.getWidth());
+			assertEquals(PDRectangle.A5.getHeight(), firstPage.getHeight());
+			assertImage(doc.getPage(1), 40, 80);
+			assertImage(doc.getPage(2), 120, 60);
+
+			// portrait image is drawn upright, landscape image is rotated 90°
+			assertDrawnBounds(doc.getPage(1), 40, 80);
+			assertDrawnBounds(doc.getPage(2), 60, 120);
+
+			assertEquals("Merged PDF", doc.getDocumentInformation().getTitle());
+			assertEquals("AC Lyon", doc.getDocumentInformation().getCreator());
+			assertEquals("Subject", doc.getDocumentInformation().getSubject());
+
+			PDMetadata metadata = doc.getDocumentCatalog().getMetadata();
+			assertNotNull(metadata);
+			XMPMetadata xmp = new DomXmpParser().parse(metadata.exportXMPMetadata());
+			DublinCoreSchema dublinCore = xmp.getDublinCoreSchema();
+			assertEquals(doc.getDocumentInformation().getTitle(), dublinCore.getTitle());
+			assertEquals(Arrays.asList(doc.getDocumentInformation().getCreator()), dublinCore.getCreators());
+		}
+	}
+
+	@Test
+	void mergeSkipsUnreadableImage() throws Exception {
+		File pdf = createPdf("source.pdf");
+		File broken = createTruncatedImage("broken.png");
+		File portrait = createImage("portrait.png", 40, 80);
+
+		PdfService pdfService = new PdfService();
+		try (InputStream merged = pdfService.merge(Arrays.asList(pdf, broken, portrait));
+				PDDocument doc = PDDocument.load(merged)) {
+			assertEquals(2, doc.getNumberOfPages());
+			assertEquals(PDRectangle.A5.getWidth(), doc.getPage(0).getMediaBox().getWidth());
+			assertImage(doc.getPage(1), 40, 80);
+		}
+	}
+
+	private void assertImage(PDPage page, int width, int height) throws IOException {
+		PDResources resources = page.getResources();
+		COSName name = resources.getXObjectNames().iterator().next();
+		PDImageXObject image = (PDImageXObject) resources.getXObject(name);
+		assertEquals(width, image.getWidth());
+		assertEquals(height, image.getHeight());
+	}
+
+	private void assertDrawnBounds(PDPage page, double width, double height) throws IOException {
+		ImageBoundsCapture capture = new ImageBoundsCapture();
+		capture.processPage(page);
+		Rectangle2D bounds = capture.bounds;
+		assertNotNull(bounds);
+		assertEquals(width, bounds.getWidth(), DELTA);
+		assertEquals(height, bounds.getHeight(), DELTA);
+
+		PDRectangle mediaBox = page.getMediaBox();
+		assertTrue(bounds.getMinX() >= mediaBox.getLowerLeftX());
+		assertTrue(bounds.getMinY() >= mediaBox.getLowerLeftY());
+		assertTrue(bounds.getMaxX() <= mediaBox.getUpperRightX());
+		assertTrue(bounds.getMaxY() <= mediaBox.getUpperRightY());
+	}
+
+	private File createPdf(String filename) throws IOException {
+		File file = tempDir.resolve(filename).toFile();
+		try (PDDocument doc = new PDDocument()) {
+			doc.addPage(new PDPage(PDRectangle.A5));
+			doc.save(file);
+		}
+		return file;
+	}
+
+	private File createImage(String filename, int width, int height) throws IOException {
+		File file = tempDir.resolve(filename).toFile();
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", file);
+		return file;
+	}
+
+	/**
+	 * Keeps the PNG signature and header chunk but drops the image data, so the
+	 * file is still detected as PNG but cannot be decoded.
+	 */
+	private File createTruncatedImage(String filename) throws IOException {
+		File file = createImage(filename, 40, 80);
+		byte[] content = Files.readAllBytes(file.toPath());
+		Files.write(file.toPath(), Arrays.copyOf(content, 40));
+		return file;
+	}
+
+	/**
+	 * Records the page area covered by the unit square of the last image drawn,
+	 * i.e. the current transformation matrix at the {@code Do} operator.
+	 */
+	private static class ImageBoundsCapture extends PDFStreamEngine {
+
+		Rectangle2D bounds;
+
+		ImageBoundsCapture() {
+			addOperator(new Concatenate());
+			addOperator(new Save());
+			addOperator(new Restore());
+		}
+
+		@Override
+		protected void processOperator(Operator operator, List<COSBase> operands) throws IOException {
+			if ("Do".equals(operator.getName())) {
+				Matrix ctm = getGraphicsState().getCurrentTransformationMatrix();
+				Point2D.Float origin = ctm.transformPoint(0, 0);
+				bounds = new Rectangle2D.Float(origin.x, origin.y, 0, 0);
+				bounds.add(ctm.transformPoint(1, 0));
+				bounds.add(ctm.transformPoint(0, 1));
+				bounds.add(ctm.transformPoint(1, 1));
+			}
+			super.processOperator(operator, operands);
+		}
+	}
+}